@@ -0,0 +1,100 @@
+import java.awt.*;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Compares the off-heap storage with the app's List<Planet>.
+//   java OffHeapBenchmark [maxBodies] [stepBodies]
+// First reports retained heap after filling each backend with 10x more bodies per row, up to
+// maxBodies, then times one force step on stepBodies and checks both backends end up in the same place.
+public class OffHeapBenchmark {
+    private static final int STEPS = 5;
+    private static final double DT = 0.05;
+
+    public static void main(String[] args) {
+        long maxBodies = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        int stepBodies = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+
+        // Load and initialize everything once so the first row doesn't count class metadata
+        try (OffHeapBodyStorage warmup = new OffHeapBodyStorage(1)) {
+            fill(warmup, 1);
+        }
+
+        System.out.printf("%12s %16s %16s %16s%n", "bodies", "off-heap bytes", "heap (off-heap)", "heap (planets)");
+        for (long count = 10_000; count <= maxBodies; count *= 10) {
+            long baseline = usedHeap();
+
+            long offHeapBytes;
+            long offHeapRetained;
+            try (OffHeapBodyStorage storage = new OffHeapBodyStorage(count)) {
+                fill(storage, count);
+                offHeapBytes = storage.segment().byteSize();
+                offHeapRetained = usedHeap() - baseline;
+            }
+
+            List<Planet> planets = new ArrayList<>();
+            Random random = new Random(42);
+            for (long i = 0; i < count; i++) {
+                planets.add(new Planet(random.nextDouble() * 800, random.nextDouble() * 600, 1e15, 0, 0, Color.LIGHT_GRAY));
+            }
+            long planetsRetained = usedHeap() - baseline;
+            // Keep the list alive until it has been measured
+            Reference.reachabilityFence(planets);
+
+            System.out.printf("%12d %16s %16s %16s%n", count,
+                    megabytes(offHeapBytes), megabytes(offHeapRetained), megabytes(planetsRetained));
+        }
+
+        // Same bodies in both backends, slots in id order so both visit the pairs in the same order
+        List<Planet> planets = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < stepBodies; i++) {
+            planets.add(new Planet(random.nextDouble() * 800, random.nextDouble() * 600, 1e15,
+                    random.nextDouble() * 20 - 10, random.nextDouble() * 20 - 10, Color.LIGHT_GRAY));
+        }
+        try (OffHeapBodyStorage storage = new OffHeapBodyStorage(stepBodies);
+             OffHeapGravity gravity = new OffHeapGravity(storage)) {
+            storage.addAll(planets);
+
+            double onHeapBest = Double.MAX_VALUE;
+            double offHeapBest = Double.MAX_VALUE;
+            for (int step = 0; step < STEPS; step++) {
+                long start = System.nanoTime();
+                GravityVisualizer.applyGravity(planets, DT);
+                onHeapBest = Math.min(onHeapBest, (System.nanoTime() - start) / 1e6);
+
+                start = System.nanoTime();
+                gravity.step(DT);
+                offHeapBest = Math.min(offHeapBest, (System.nanoTime() - start) / 1e6);
+            }
+
+            double difference = 0;
+            for (int i = 0; i < stepBodies; i++) {
+                difference = Math.max(difference, Math.abs(planets.get(i).x - storage.get(OffHeapBodyStorage.X, i)));
+                difference = Math.max(difference, Math.abs(planets.get(i).y - storage.get(OffHeapBodyStorage.Y, i)));
+            }
+            System.out.printf("step, %d bodies: planets %.2f ms, off-heap %.2f ms (best of %d), max position difference %s%n",
+                    stepBodies, onHeapBest, offHeapBest, STEPS, difference);
+        }
+    }
+
+    private static void fill(OffHeapBodyStorage storage, long count) {
+        Random random = new Random(42);
+        for (long i = 0; i < count; i++) {
+            storage.add(random.nextDouble() * 800, random.nextDouble() * 600, 1e15, 0, 0, Color.LIGHT_GRAY);
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static String megabytes(long bytes) {
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+}
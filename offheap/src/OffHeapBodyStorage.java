@@ -0,0 +1,210 @@
+import java.awt.*;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+
+// Body storage outside the Java heap, laid out as one column per field (x, y, mass, vx, vy, color).
+// Each column holds `capacity` entries, so passes over a single field walk contiguous memory.
+// Needs JDK 22 (java.lang.foreign), which is why it lives in its own module next to src/.
+// Single writer: add, swapRemove and clear update the count without synchronization, so only one
+// thread may mutate at a time. Other threads may read columns while no mutation is running.
+public final class OffHeapBodyStorage implements AutoCloseable {
+    public static final int X = 0;
+    public static final int Y = 1;
+    public static final int MASS = 2;
+    public static final int VELOCITY_X = 3;
+    public static final int VELOCITY_Y = 4;
+    private static final int DOUBLE_COLUMNS = 5;
+
+    // The header describes the layout, so a mapped file can be validated when reopened
+    private static final long HEADER_BYTES = 64;
+    private static final long MAGIC_OFFSET = 0;
+    private static final long VERSION_OFFSET = 8;
+    private static final long CAPACITY_OFFSET = 16;
+    private static final long SIZE_OFFSET = 24;
+    private static final long MAGIC = 0x47524156_53494D42L; // "GRAVSIMB"
+    private static final int VERSION = 1;
+
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final long capacity;
+    private final long colorOffset;
+    private boolean closed;
+
+    // Allocate storage in a shared arena, so readers on other threads can access the segment
+    public OffHeapBodyStorage(long capacity) {
+        this.arena = Arena.ofShared();
+        this.capacity = capacity;
+        this.colorOffset = colorOffsetFor(capacity);
+        this.segment = arena.allocate(bytesFor(capacity), Double.BYTES);
+        writeHeader(segment, capacity);
+    }
+
+    // Back the storage with a memory-mapped file, so runs can exceed physical memory.
+    // An existing file is reopened with its bodies, as long as it was created with the same capacity.
+    public OffHeapBodyStorage(Path file, long capacity) throws IOException {
+        this.arena = Arena.ofShared();
+        this.capacity = capacity;
+        this.colorOffset = colorOffsetFor(capacity);
+        boolean fresh;
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            fresh = channel.size() == 0;
+            if (!fresh) {
+                checkHeader(channel, file, capacity);
+            }
+            this.segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytesFor(capacity), arena);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+        if (fresh) {
+            writeHeader(segment, capacity);
+        }
+    }
+
+    private static long colorOffsetFor(long capacity) {
+        return HEADER_BYTES + DOUBLE_COLUMNS * capacity * Double.BYTES;
+    }
+
+    private static long bytesFor(long capacity) {
+        return colorOffsetFor(capacity) + capacity * Integer.BYTES;
+    }
+
+    private static void writeHeader(MemorySegment segment, long capacity) {
+        segment.set(ValueLayout.JAVA_LONG, MAGIC_OFFSET, MAGIC);
+        segment.set(ValueLayout.JAVA_INT, VERSION_OFFSET, VERSION);
+        segment.set(ValueLayout.JAVA_LONG, CAPACITY_OFFSET, capacity);
+        segment.set(ValueLayout.JAVA_LONG, SIZE_OFFSET, 0L);
+    }
+
+    // Column offsets depend on the capacity, so a file written with another capacity can't be read
+    private static void checkHeader(FileChannel channel, Path file, long capacity) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate((int) HEADER_BYTES).order(ByteOrder.nativeOrder());
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            // Keep reading until the header is complete or the file ends
+        }
+        if (header.hasRemaining() || header.getLong((int) MAGIC_OFFSET) != MAGIC) {
+            throw new IOException(file + " is not a body storage file");
+        }
+        int version = header.getInt((int) VERSION_OFFSET);
+        if (version != VERSION) {
+            throw new IOException(file + " has storage version " + version + ", expected " + VERSION);
+        }
+        long storedCapacity = header.getLong((int) CAPACITY_OFFSET);
+        if (storedCapacity != capacity) {
+            throw new IOException(file + " was created with capacity " + storedCapacity + ", not " + capacity);
+        }
+        long storedSize = header.getLong((int) SIZE_OFFSET);
+        if (storedSize < 0 || storedSize > storedCapacity || channel.size() < bytesFor(storedCapacity)) {
+            throw new IOException(file + " is truncated or corrupt");
+        }
+    }
+
+    // Raw segment for force engines and renderers that read columns directly
+    public MemorySegment segment() {
+        return segment;
+    }
+
+    // Byte offset of body i in one of the double columns (X, Y, MASS, VELOCITY_X, VELOCITY_Y)
+    public long offsetOf(int column, long i) {
+        return HEADER_BYTES + (column * capacity + i) * Double.BYTES;
+    }
+
+    // Byte offset of body i in the color column, stored as ARGB ints
+    public long colorOffsetOf(long i) {
+        return colorOffset + i * Integer.BYTES;
+    }
+
+    public long size() {
+        return segment.get(ValueLayout.JAVA_LONG, SIZE_OFFSET);
+    }
+
+    private void setSize(long size) {
+        segment.set(ValueLayout.JAVA_LONG, SIZE_OFFSET, size);
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    // Checked accessor, i must be below size(); engines reading segment() directly skip the check
+    public double get(int column, long i) {
+        Objects.checkIndex(i, size());
+        return segment.get(ValueLayout.JAVA_DOUBLE, offsetOf(column, i));
+    }
+
+    public void set(int column, long i, double value) {
+        Objects.checkIndex(i, size());
+        segment.set(ValueLayout.JAVA_DOUBLE, offsetOf(column, i), value);
+    }
+
+    public int colorRgb(long i) {
+        Objects.checkIndex(i, size());
+        return segment.get(ValueLayout.JAVA_INT, colorOffsetOf(i));
+    }
+
+    public void setColor(long i, Color color) {
+        Objects.checkIndex(i, size());
+        segment.set(ValueLayout.JAVA_INT, colorOffsetOf(i), color.getRGB());
+    }
+
+    public long add(double x, double y, double mass, double velocityX, double velocityY, Color color) {
+        long i = size();
+        if (i >= capacity) {
+            throw new IllegalStateException("Body storage is full (capacity " + capacity + ")");
+        }
+        setSize(i + 1);
+        set(X, i, x);
+        set(Y, i, y);
+        set(MASS, i, mass);
+        set(VELOCITY_X, i, velocityX);
+        set(VELOCITY_Y, i, velocityY);
+        setColor(i, color);
+        return i;
+    }
+
+    public void addAll(List<Planet> planets) {
+        for (Planet planet : planets) {
+            add(planet.x, planet.y, planet.mass, planet.velocityX, planet.velocityY, planet.color);
+        }
+    }
+
+    // Remove body i by moving the last body into its slot, so order is not preserved
+    public void swapRemove(long i) {
+        long last = size() - 1;
+        if (i < 0 || i > last) {
+            throw new IndexOutOfBoundsException("Body " + i + " out of range for size " + (last + 1));
+        }
+        if (i != last) {
+            for (int column = 0; column < DOUBLE_COLUMNS; column++) {
+                set(column, i, get(column, last));
+            }
+            segment.set(ValueLayout.JAVA_INT, colorOffsetOf(i), colorRgb(last));
+        }
+        setSize(last);
+    }
+
+    public void clear() {
+        setSize(0);
+    }
+
+    // Unmaps or frees the memory; the segment must not be used afterwards. Closing twice is a no-op.
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        if (segment.isMapped()) {
+            segment.force();
+        }
+        arena.close();
+    }
+}
@@ -0,0 +1,75 @@
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+// Force engine that steps the bodies of an OffHeapBodyStorage in place, reading the columns straight
+// from its segment. Accelerations are accumulated in an off-heap scratch segment, so a step keeps
+// nothing per body on the heap. Same force law, summation order and integration as
+// GravityVisualizer.applyGravity, with pairs visited in slot order instead of id order.
+public final class OffHeapGravity implements AutoCloseable {
+    private final OffHeapBodyStorage storage;
+    private final Arena arena;
+    private final MemorySegment accelerationX;
+    private final MemorySegment accelerationY;
+    private boolean closed;
+
+    public OffHeapGravity(OffHeapBodyStorage storage) {
+        this.storage = storage;
+        this.arena = Arena.ofShared();
+        this.accelerationX = arena.allocate(storage.capacity() * Double.BYTES, Double.BYTES);
+        this.accelerationY = arena.allocate(storage.capacity() * Double.BYTES, Double.BYTES);
+    }
+
+    public void step(double dt) {
+        MemorySegment bodies = storage.segment();
+        long n = storage.size();
+        accelerationX.asSlice(0, n * Double.BYTES).fill((byte) 0);
+        accelerationY.asSlice(0, n * Double.BYTES).fill((byte) 0);
+
+        for (long i = 0; i < n; i++) {
+            double x1 = bodies.get(ValueLayout.JAVA_DOUBLE, storage.offsetOf(OffHeapBodyStorage.X, i));
+            double y1 = bodies.get(ValueLayout.JAVA_DOUBLE, storage.offsetOf(OffHeapBodyStorage.Y, i));
+            double mass1 = bodies.get(ValueLayout.JAVA_DOUBLE, storage.offsetOf(OffHeapBodyStorage.MASS, i));
+
+            for (long j = i + 1; j < n; j++) {
+                double[] accelerations = GravityVisualizer.calculateGravitationalForce(x1, y1, mass1,
+                        bodies.get(ValueLayout.JAVA_DOUBLE, storage.offsetOf(OffHeapBodyStorage.X, j)),
+                        bodies.get(ValueLayout.JAVA_DOUBLE, storage.offsetOf(OffHeapBodyStorage.Y, j)),
+                        bodies.get(ValueLayout.JAVA_DOUBLE, storage.offsetOf(OffHeapBodyStorage.MASS, j)));
+
+                addAt(accelerationX, i, accelerations[0]);
+                addAt(accelerationY, i, accelerations[1]);
+                addAt(accelerationX, j, accelerations[2]);
+                addAt(accelerationY, j, accelerations[3]);
+            }
+        }
+
+        // Same update as Planet.updatePosition
+        for (long i = 0; i < n; i++) {
+            long vxOffset = storage.offsetOf(OffHeapBodyStorage.VELOCITY_X, i);
+            long vyOffset = storage.offsetOf(OffHeapBodyStorage.VELOCITY_Y, i);
+            long xOffset = storage.offsetOf(OffHeapBodyStorage.X, i);
+            long yOffset = storage.offsetOf(OffHeapBodyStorage.Y, i);
+
+            double velocityX = bodies.get(ValueLayout.JAVA_DOUBLE, vxOffset)
+                    + accelerationX.getAtIndex(ValueLayout.JAVA_DOUBLE, i) * dt;
+            double velocityY = bodies.get(ValueLayout.JAVA_DOUBLE, vyOffset)
+                    + accelerationY.getAtIndex(ValueLayout.JAVA_DOUBLE, i) * dt;
+            bodies.set(ValueLayout.JAVA_DOUBLE, vxOffset, velocityX);
+            bodies.set(ValueLayout.JAVA_DOUBLE, vyOffset, velocityY);
+            bodies.set(ValueLayout.JAVA_DOUBLE, xOffset, bodies.get(ValueLayout.JAVA_DOUBLE, xOffset) + velocityX * dt);
+            bodies.set(ValueLayout.JAVA_DOUBLE, yOffset, bodies.get(ValueLayout.JAVA_DOUBLE, yOffset) + velocityY * dt);
+        }
+    }
+
+    private static void addAt(MemorySegment column, long i, double value) {
+        column.setAtIndex(ValueLayout.JAVA_DOUBLE, i, column.getAtIndex(ValueLayout.JAVA_DOUBLE, i) + value);
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        arena.close();
+    }
+}
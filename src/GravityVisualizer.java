@@ -2,6 +2,8 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
 public class GravityVisualizer extends JPanel implements ActionListener, ComponentListener, MouseListener {
@@ -15,8 +17,10 @@ public class GravityVisualizer extends JPanel implements ActionListener, Compone
 
     private static final double G = 6.67430e-11; // 6.67430e-11 = standard
     private static final int PLANET_OFFSET = 100;
+    private static final int REORDER_INTERVAL = 1000; // Steps between space-filling-curve reorders
 
     private final List<Planet> planets;
+    private final PlanetCommandQueue commands;
     private int centerX;
     private int centerY;
     private Timer timer;
@@ -25,6 +29,8 @@ public class GravityVisualizer extends JPanel implements ActionListener, Compone
     private JPopupMenu popupMenu;
     private boolean showVectors = true;
     private double timeScale = 1.0; // Time scale factor for simulation speed
+    private long stepCount = 0;
+    private long[] defaultPlanetIds; // Ids of the pair that resizing re-centers, owned by the step loop
 
     public GravityVisualizer() {
         setPreferredSize(new Dimension(WIDTH, HEIGHT));
@@ -33,9 +39,9 @@ public class GravityVisualizer extends JPanel implements ActionListener, Compone
         centerX = WIDTH / 2;
         centerY = HEIGHT / 2;
 
-        planets = new ArrayList<>();
-        planets.add(new Planet(centerX - PLANET_OFFSET, centerY, 1e15, 0, 10, planetColor));
-        planets.add(new Planet(centerX + PLANET_OFFSET, centerY, 1e15, 0, -10, planetColor));
+        planets = new ArrayList<>(createDefaultPlanets());
+        defaultPlanetIds = idsOf(planets);
+        commands = new PlanetCommandQueue(this::applyCommandsIfPaused);
 
         timer = new Timer(DELAY, this);
         timer.start();
@@ -98,28 +104,24 @@ public class GravityVisualizer extends JPanel implements ActionListener, Compone
         bluePlanetItem.addActionListener(e -> {
             planetColor = new Color(100, 149, 237); // Cornflower blue
             updatePlanetColors();
-            repaint();
         });
 
         JMenuItem greenPlanetItem = createStyledMenuItem("Green Planets");
         greenPlanetItem.addActionListener(e -> {
             planetColor = new Color(60, 179, 113); // Medium sea green
             updatePlanetColors();
-            repaint();
         });
 
         JMenuItem redPlanetItem = createStyledMenuItem("Red Planets");
         redPlanetItem.addActionListener(e -> {
             planetColor = new Color(205, 92, 92); // Indian red
             updatePlanetColors();
-            repaint();
         });
 
         JMenuItem grayPlanetItem = createStyledMenuItem("Gray Planets");
         grayPlanetItem.addActionListener(e -> {
             planetColor = Color.LIGHT_GRAY;
             updatePlanetColors();
-            repaint();
         });
 
         // Vector color options
@@ -329,17 +331,13 @@ public class GravityVisualizer extends JPanel implements ActionListener, Compone
             double randomY = centerY + (Math.random() * 200 - 100);
             double randomVelocityX = Math.random() * 20 - 10;
             double randomVelocityY = Math.random() * 20 - 10;
-            planets.add(new Planet(randomX, randomY, 1e15, randomVelocityX, randomVelocityY, planetColor));
-            repaint();
+            commands.add(new Planet(randomX, randomY, 1e15, randomVelocityX, randomVelocityY, planetColor));
         });
 
         // Clear planets menu item
         JMenuItem clearPlanetsItem = createStyledMenuItem("Reset to Default");
         clearPlanetsItem.addActionListener(e -> {
-            planets.clear();
-            planets.add(new Planet(centerX - PLANET_OFFSET, centerY, 1e15, 0, 10, planetColor));
-            planets.add(new Planet(centerX + PLANET_OFFSET, centerY, 1e15, 0, -10, planetColor));
-            repaint();
+            resetToDefaultPlanets();
         });
 
         // Add settings items to settings menu
@@ -459,15 +457,15 @@ public class GravityVisualizer extends JPanel implements ActionListener, Compone
             timer.start();
         } else {
             timer.stop();
+            // Commands submitted since the last step would otherwise wait until the simulation resumes
+            applyCommandsIfPaused();
         }
         repaint();
     }
 
     // Method to reset the simulation
     private void resetSimulation() {
-        planets.clear();
-        planets.add(new Planet(centerX - PLANET_OFFSET, centerY, 1e15, 0, 10, planetColor));
-        planets.add(new Planet(centerX + PLANET_OFFSET, centerY, 1e15, 0, -10, planetColor));
+        resetToDefaultPlanets();
 
         if (!isRunning) {
             isRunning = true;
@@ -477,11 +475,38 @@ public class GravityVisualizer extends JPanel implements ActionListener, Compone
         repaint();
     }
 
+    // Method to create the two default planets around the current center
+    private List<Planet> createDefaultPlanets() {
+        return List.of(
+                new Planet(centerX - PLANET_OFFSET, centerY, 1e15, 0, 10, planetColor),
+                new Planet(centerX + PLANET_OFFSET, centerY, 1e15, 0, -10, planetColor)
+        );
+    }
+
+    // Method to queue a reset; the new pair only becomes the one resizing re-centers once it is in the list
+    private void resetToDefaultPlanets() {
+        List<Planet> defaults = createDefaultPlanets();
+        commands.reset(defaults, () -> defaultPlanetIds = idsOf(defaults));
+    }
+
+    private static long[] idsOf(List<Planet> defaults) {
+        return new long[] {defaults.get(0).id, defaults.get(1).id};
+    }
+
     // Method to update all planet colors
     private void updatePlanetColors() {
-        for (Planet planet : planets) {
-            planet.color = planetColor;
-        }
+        commands.recolor(planetColor);
+    }
+
+    // Queued commands are normally applied between steps; while paused there are no steps, so drain them on the EDT
+    private void applyCommandsIfPaused() {
+        SwingUtilities.invokeLater(() -> {
+            if (!isRunning && commands.applyPending(planets)) {
+                // Budget spent, continue in a later event so the EDT stays responsive
+                applyCommandsIfPaused();
+            }
+            repaint();
+        });
     }
 
     // Draw a small indicator circle when simulation is running
@@ -505,7 +530,8 @@ public class GravityVisualizer extends JPanel implements ActionListener, Compone
 
         // Draw gravitational field vectors if enabled
         if (showVectors) {
-            drawGravitationalField(g2d, planets);
+            g2d.setColor(vectorColor);
+            drawGravitationalField(g2d, planets, getWidth(), getHeight());
         }
 
         // Draw planets
@@ -521,71 +547,100 @@ public class GravityVisualizer extends JPanel implements ActionListener, Compone
     public void actionPerformed(ActionEvent e) {
         if (!isRunning) return;
 
+        // Apply queued mutations between steps so the step loop owns the planet list
+        commands.applyPending(planets);
+
         // Calculate and apply gravitational forces with time scaling
-        double dt = 0.05 * timeScale;
+        applyGravity(planets, 0.05 * timeScale);
+
+        // Keep bodies that are close in space close in memory
+        if (++stepCount % REORDER_INTERVAL == 0) {
+            MortonReorderer.reorder(planets);
+        }
+
+        repaint();
+    }
+
+    // Accumulate every pair's acceleration from the same positions before moving anything, visiting
+    // pairs in id order so the sums, and with them the trajectories, don't depend on list order
+    static void applyGravity(List<Planet> planets, double dt) {
+        Planet[] byId = planets.toArray(new Planet[0]);
+        Arrays.sort(byId, Comparator.comparingLong(planet -> planet.id));
+
+        int n = byId.length;
+        double[] accelerationX = new double[n];
+        double[] accelerationY = new double[n];
 
-        for (int i = 0; i < planets.size(); i++) {
-            for (int j = i + 1; j < planets.size(); j++) {
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
                 // Calculate gravitational acceleration
-                double[] accelerations = calculateGravitationalForce(planets.get(i), planets.get(j));
+                double[] accelerations = calculateGravitationalForce(byId[i], byId[j]);
 
-                planets.get(i).updatePosition(accelerations[0], accelerations[1], dt);
-                planets.get(j).updatePosition(accelerations[2], accelerations[3], dt);
+                accelerationX[i] += accelerations[0];
+                accelerationY[i] += accelerations[1];
+                accelerationX[j] += accelerations[2];
+                accelerationY[j] += accelerations[3];
             }
         }
 
-        repaint();
+        for (int i = 0; i < n; i++) {
+            byId[i].updatePosition(accelerationX[i], accelerationY[i], dt);
+        }
     }
 
-    // Method to reposition planets around the center
-    private void repositionPlanets() {
-        if (planets.size() >= 2) {
-            // Reposition the first two planets (you can extend this for more planets)
-            planets.getFirst().x = centerX - PLANET_OFFSET;
-            planets.getFirst().y = centerY;
-            planets.get(0).velocityX = 0; // Reset velocity
-            planets.get(0).velocityY = 10; // Reset to initial velocity
-
-            planets.get(1).x = centerX + PLANET_OFFSET;
-            planets.get(1).y = centerY;
-            planets.get(1).velocityX = 0; // Reset velocity
-            planets.get(1).velocityY = -10; // Reset to initial velocity
+    // Method to reposition the default planets around the center
+    private void repositionPlanets(List<Planet> planets) {
+        // Look the pair up by id, reordering moves them around in the list
+        long[] ids = defaultPlanetIds;
+        for (Planet planet : planets) {
+            if (planet.id == ids[0]) {
+                planet.x = centerX - PLANET_OFFSET;
+                planet.y = centerY;
+                planet.velocityX = 0; // Reset velocity
+                planet.velocityY = 10; // Reset to initial velocity
+            } else if (planet.id == ids[1]) {
+                planet.x = centerX + PLANET_OFFSET;
+                planet.y = centerY;
+                planet.velocityX = 0; // Reset velocity
+                planet.velocityY = -10; // Reset to initial velocity
+            }
         }
     }
 
-    private double[] calculateGravitationalForce(Planet planet1, Planet planet2) {
+    private static double[] calculateGravitationalForce(Planet planet1, Planet planet2) {
+        return calculateGravitationalForce(planet1.x, planet1.y, planet1.mass, planet2.x, planet2.y, planet2.mass);
+    }
+
+    // Shared with engines that keep bodies outside Planet objects, such as OffHeapGravity
+    static double[] calculateGravitationalForce(double x1, double y1, double mass1,
+                                                double x2, double y2, double mass2) {
         // Calculate distance between planets
-        double dx = planet2.x - planet1.x;
-        double dy = planet2.y - planet1.y;
+        double dx = x2 - x1;
+        double dy = y2 - y1;
 
         // Avoid division by zero
         double distance = Math.sqrt(dx * dx + dy * dy);
         if (distance < 1) distance = 1;
 
         // Calculate gravitational force
-        double force = G * planet1.mass * planet2.mass / (distance * distance);
+        double force = G * mass1 * mass2 / (distance * distance);
 
         // Calculate acceleration components
         double angle = Math.atan2(dy, dx);
-        double acceleration1X = force * Math.cos(angle) / planet1.mass;
-        double acceleration1Y = force * Math.sin(angle) / planet1.mass;
+        double acceleration1X = force * Math.cos(angle) / mass1;
+        double acceleration1Y = force * Math.sin(angle) / mass1;
 
-        double acceleration2X = -force * Math.cos(angle) / planet2.mass;
-        double acceleration2Y = -force * Math.sin(angle) / planet2.mass;
+        double acceleration2X = -force * Math.cos(angle) / mass2;
+        double acceleration2Y = -force * Math.sin(angle) / mass2;
 
         return new double[] {acceleration1X, acceleration1Y, acceleration2X, acceleration2Y};
     }
 
-    private void drawGravitationalField(Graphics2D g, List<Planet> planets) {
+    static void drawGravitationalField(Graphics2D g, List<Planet> planets, int width, int height) {
         int gridSpacing = 15;
         double maxVectorLength = 50;
         double maxInfluenceDistance = 300;
 
-        g.setColor(vectorColor);
-
-        int width = getWidth();
-        int height = getHeight();
-
         for (int x = 0; x < width; x += gridSpacing) {
             for (int y = 0; y < height; y += gridSpacing) {
                 double totalFx = 0;
@@ -662,7 +717,10 @@ public class GravityVisualizer extends JPanel implements ActionListener, Compone
         centerX = getWidth() / 2;
         centerY = getHeight() / 2;
 
-        repositionPlanets();
+        commands.submit((planets, budget) -> {
+            repositionPlanets(planets);
+            return planets.size();
+        });
     }
 
     @Override
@@ -0,0 +1,145 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+// Sorts bodies along a Morton (Z-order) curve so bodies that are close in space are close in memory
+public class MortonReorderer {
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int RADIX_MASK = RADIX - 1;
+
+    // Below this many bodies a single chunk is faster than splitting the work across threads
+    private static final int PARALLEL_THRESHOLD = 1 << 15;
+
+    private MortonReorderer() {}
+
+    // Reorder the list in place; Planet.id stays attached to each body
+    public static void reorder(List<Planet> planets) {
+        int n = planets.size();
+        if (n < 2) return;
+
+        Planet[] snapshot = planets.toArray(new Planet[0]);
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = snapshot[i].x;
+            ys[i] = snapshot[i].y;
+        }
+
+        int[] order = sortedOrder(mortonKeys(xs, ys, n));
+        for (int i = 0; i < n; i++) {
+            planets.set(i, snapshot[order[i]]);
+        }
+    }
+
+    // 32-bit Morton keys from positions quantized to 16 bits per axis over their bounding box
+    public static int[] mortonKeys(double[] xs, double[] ys, int n) {
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, xs[i]);
+            maxX = Math.max(maxX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+
+        final double originX = minX;
+        final double originY = minY;
+        final double scaleX = maxX > minX ? 0xFFFF / (maxX - minX) : 0;
+        final double scaleY = maxY > minY ? 0xFFFF / (maxY - minY) : 0;
+
+        int[] keys = new int[n];
+        IntStream range = IntStream.range(0, n);
+        if (n >= PARALLEL_THRESHOLD) range = range.parallel();
+        range.forEach(i -> {
+            int qx = quantize((xs[i] - originX) * scaleX);
+            int qy = quantize((ys[i] - originY) * scaleY);
+            keys[i] = spreadBits(qx) | (spreadBits(qy) << 1);
+        });
+        return keys;
+    }
+
+    private static int quantize(double value) {
+        return (int) Math.max(0, Math.min(0xFFFF, value));
+    }
+
+    // Insert a zero bit between each of the low 16 bits
+    private static int spreadBits(int v) {
+        v &= 0xFFFF;
+        v = (v | (v << 8)) & 0x00FF00FF;
+        v = (v | (v << 4)) & 0x0F0F0F0F;
+        v = (v | (v << 2)) & 0x33333333;
+        v = (v | (v << 1)) & 0x55555555;
+        return v;
+    }
+
+    // Stable LSD radix sort over unsigned keys, returns the permutation that sorts them.
+    // Each pass builds per-chunk histograms in parallel, then every chunk scatters into its own slots.
+    public static int[] sortedOrder(int[] keys) {
+        int n = keys.length;
+        int chunks = n < PARALLEL_THRESHOLD ? 1 : Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+        int chunkSize = (n + chunks - 1) / chunks;
+        int[][] offsets = new int[chunks][RADIX];
+
+        int[] srcKeys = keys.clone();
+        int[] srcOrder = new int[n];
+        for (int i = 0; i < n; i++) srcOrder[i] = i;
+        int[] dstKeys = new int[n];
+        int[] dstOrder = new int[n];
+
+        for (int shift = 0; shift < Integer.SIZE; shift += RADIX_BITS) {
+            final int s = shift;
+            final int[] inKeys = srcKeys, inOrder = srcOrder, outKeys = dstKeys, outOrder = dstOrder;
+
+            forEachChunk(chunks, c -> {
+                int[] count = offsets[c];
+                Arrays.fill(count, 0);
+                int end = Math.min(n, (c + 1) * chunkSize);
+                for (int i = c * chunkSize; i < end; i++) {
+                    count[(inKeys[i] >>> s) & RADIX_MASK]++;
+                }
+            });
+
+            // Digit-major prefix sum keeps the sort stable across chunks
+            int offset = 0;
+            boolean singleDigit = false;
+            for (int d = 0; d < RADIX; d++) {
+                int digitStart = offset;
+                for (int c = 0; c < chunks; c++) {
+                    int count = offsets[c][d];
+                    offsets[c][d] = offset;
+                    offset += count;
+                }
+                if (offset - digitStart == n) singleDigit = true;
+            }
+            // Every key shares this digit, the pass would not change the order
+            if (singleDigit) continue;
+
+            forEachChunk(chunks, c -> {
+                int[] next = offsets[c];
+                int end = Math.min(n, (c + 1) * chunkSize);
+                for (int i = c * chunkSize; i < end; i++) {
+                    int position = next[(inKeys[i] >>> s) & RADIX_MASK]++;
+                    outKeys[position] = inKeys[i];
+                    outOrder[position] = inOrder[i];
+                }
+            });
+
+            srcKeys = outKeys;
+            srcOrder = outOrder;
+            dstKeys = inKeys;
+            dstOrder = inOrder;
+        }
+        return srcOrder;
+    }
+
+    private static void forEachChunk(int chunks, IntConsumer body) {
+        if (chunks == 1) {
+            body.accept(0);
+        } else {
+            IntStream.range(0, chunks).parallel().forEach(body);
+        }
+    }
+}
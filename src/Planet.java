@@ -1,6 +1,11 @@
 import java.awt.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Planet {
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    // Stable identity, the position in the planet list changes when bodies are reordered
+    final long id;
     double x;
     double y;
     double mass;
@@ -10,6 +15,7 @@ public class Planet {
     int radius;
 
     public Planet(double x, double y, double mass, double velocityX, double velocityY, Color color) {
+        this.id = NEXT_ID.getAndIncrement();
         this.x = x;
         this.y = y;
         this.mass = mass;
@@ -0,0 +1,135 @@
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+public class PlanetCommandQueue {
+    // Upper bound on bodies touched between two steps, larger commands carry over to the next step
+    private static final int MAX_BODIES_PER_STEP = 50_000;
+
+    private final ConcurrentLinkedQueue<Command> pending = new ConcurrentLinkedQueue<>();
+    private final Runnable onSubmit;
+
+    // Only touched by the thread calling applyPending
+    private Command inProgress;
+
+    // A mutation of the planet list, applied by the thread that owns the list
+    public interface Command {
+        // Touch at most `budget` bodies and return how many were touched
+        int apply(List<Planet> planets, int budget);
+
+        // Commands that spread their work over several steps return false until finished
+        default boolean isDone() {
+            return true;
+        }
+    }
+
+    // onSubmit runs on the submitting thread after every enqueue, e.g. to schedule a drain while paused
+    public PlanetCommandQueue(Runnable onSubmit) {
+        this.onSubmit = onSubmit;
+    }
+
+    // Enqueue an arbitrary command, safe to call from any thread
+    public void submit(Command command) {
+        pending.offer(command);
+        onSubmit.run();
+    }
+
+    public void add(Planet planet) {
+        submit((planets, budget) -> {
+            planets.add(planet);
+            return 1;
+        });
+    }
+
+    // Removal scans and shifts the list, so it is charged the full list size
+    public void remove(Planet planet) {
+        submit((planets, budget) -> {
+            int scanned = planets.size();
+            planets.remove(planet);
+            return scanned;
+        });
+    }
+
+    // Planets are built by the caller, the batch is appended a budget's worth per step
+    public void addAll(Collection<Planet> newPlanets) {
+        List<Planet> batch = new ArrayList<>(newPlanets);
+        submit(new Command() {
+            private int next = 0;
+
+            @Override
+            public int apply(List<Planet> planets, int budget) {
+                int end = (int) Math.min(batch.size(), (long) next + budget);
+                planets.addAll(batch.subList(next, end));
+                int touched = end - next;
+                next = end;
+                return touched;
+            }
+
+            @Override
+            public boolean isDone() {
+                return next >= batch.size();
+            }
+        });
+    }
+
+    public void recolor(Color color) {
+        submit(new Command() {
+            private int next = 0;
+            private boolean done = false;
+
+            @Override
+            public int apply(List<Planet> planets, int budget) {
+                int end = (int) Math.min(planets.size(), (long) next + budget);
+                for (int i = next; i < end; i++) {
+                    planets.get(i).color = color;
+                }
+                int touched = end - next;
+                next = end;
+                done = next >= planets.size();
+                return touched;
+            }
+
+            @Override
+            public boolean isDone() {
+                return done;
+            }
+        });
+    }
+
+    public void reset(Collection<Planet> defaultPlanets) {
+        reset(defaultPlanets, () -> {});
+    }
+
+    // onApplied runs on the applying thread right after the list has been replaced
+    public void reset(Collection<Planet> defaultPlanets, Runnable onApplied) {
+        List<Planet> batch = new ArrayList<>(defaultPlanets);
+        submit((planets, budget) -> {
+            // Clearing nulls every slot, so the old list counts towards the budget too
+            int cleared = planets.size();
+            planets.clear();
+            planets.addAll(batch);
+            onApplied.run();
+            return cleared + batch.size();
+        });
+    }
+
+    // Apply pending commands in submission order until the step's body budget is spent.
+    // Returns true while work is left, either queued or a command carried over to the next call.
+    public boolean applyPending(List<Planet> planets) {
+        int budget = MAX_BODIES_PER_STEP;
+        while (budget > 0) {
+            if (inProgress == null) {
+                inProgress = pending.poll();
+                if (inProgress == null) return false;
+            }
+            // Count every command as at least one body so cheap commands still use up the budget
+            budget -= Math.max(1, inProgress.apply(planets, budget));
+            if (inProgress.isDone()) {
+                inProgress = null;
+            }
+        }
+        return inProgress != null || !pending.isEmpty();
+    }
+}
@@ -0,0 +1,104 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+// Measures what Morton reordering buys on the passes the app runs over its bodies.
+//   java ReorderBenchmark <step|field|sort> <shuffled|reordered> [count]
+// Each run times one pass only. Setup is the same in both orders except for applying the permutation
+// (the Morton order is always computed), so hardware counters of the two runs can be compared:
+//   perf stat -e cache-references,cache-misses java ReorderBenchmark field shuffled
+//   perf stat -e cache-references,cache-misses java ReorderBenchmark field reordered
+public class ReorderBenchmark {
+    private static final int FIELD_WIDTH = 800;
+    private static final int FIELD_HEIGHT = 600;
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final int ITERATIONS = 5;
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: java ReorderBenchmark <step|field|sort> <shuffled|reordered> [count]");
+            System.exit(1);
+        }
+        String pass = args[0];
+        boolean reorder = args[1].equals("reordered");
+        int count = args.length > 2 ? Integer.parseInt(args[2]) : defaultCount(pass);
+
+        // Bodies spread over the window like the app does
+        List<Planet> planets = scatteredPlanets(count, FIELD_WIDTH, FIELD_HEIGHT);
+
+        // Untimed setup
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        for (int i = 0; i < count; i++) {
+            xs[i] = planets.get(i).x;
+            ys[i] = planets.get(i).y;
+        }
+        int[] order = MortonReorderer.sortedOrder(MortonReorderer.mortonKeys(xs, ys, count));
+        if (reorder && !pass.equals("sort")) {
+            List<Planet> snapshot = new ArrayList<>(planets);
+            for (int i = 0; i < count; i++) {
+                planets.set(i, snapshot.get(order[i]));
+            }
+        }
+
+        // The sort works on a copy, refilled untimed before every run so each one starts shuffled
+        List<Planet> sortInput = new ArrayList<>(count);
+        Runnable prepare = () -> {
+            if (pass.equals("sort")) {
+                sortInput.clear();
+                sortInput.addAll(planets);
+            }
+        };
+        Runnable timed = switch (pass) {
+            case "step" -> () -> GravityVisualizer.applyGravity(planets, 0.05);
+            case "field" -> fieldPass(planets);
+            case "sort" -> () -> MortonReorderer.reorder(sortInput);
+            default -> throw new IllegalArgumentException("Unknown pass: " + pass);
+        };
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            prepare.run();
+            timed.run();
+        }
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i < ITERATIONS; i++) {
+            prepare.run();
+            long start = System.nanoTime();
+            timed.run();
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+        }
+        System.out.printf("%s %s, %d bodies: %.2f ms (best of %d)%n",
+                pass, reorder ? "reordered" : "shuffled", count, best, ITERATIONS);
+    }
+
+    private static int defaultCount(String pass) {
+        return switch (pass) {
+            case "step" -> 5_000;
+            case "field" -> 20_000;
+            default -> 1_000_000; // sort
+        };
+    }
+
+    // Spatially uniform bodies stored in random order, like a long-running simulation
+    private static List<Planet> scatteredPlanets(int count, double width, double height) {
+        Random random = new Random(42);
+        List<Planet> planets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            planets.add(new Planet(random.nextDouble() * width, random.nextDouble() * height,
+                    1e15, 0, 0, Color.LIGHT_GRAY));
+        }
+        Collections.shuffle(planets, random);
+        return planets;
+    }
+
+    // The vector field exactly as paintComponent draws it, into an offscreen image
+    private static Runnable fieldPass(List<Planet> planets) {
+        BufferedImage image = new BufferedImage(FIELD_WIDTH, FIELD_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.LIGHT_GRAY);
+        return () -> GravityVisualizer.drawGravitationalField(g, planets, FIELD_WIDTH, FIELD_HEIGHT);
+    }
+}